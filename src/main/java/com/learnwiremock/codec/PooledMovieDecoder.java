@@ -0,0 +1,90 @@
+package com.learnwiremock.codec;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learnwiremock.dto.Movie;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.ChannelOption;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Decodes movie payloads straight from the (pooled) Netty buffers of the response body.
+ * The buffers are joined into a composite view rather than copied into a byte[], parsed by
+ * Jackson through an InputStream over that view and released as soon as parsing finishes.
+ * Each operation has its own size limit; going over it fails with a DataBufferLimitException.
+ */
+public class PooledMovieDecoder {
+    public static final int DEFAULT_MAX_MOVIE_BYTES = 64 * 1024;
+    public static final int DEFAULT_MAX_MOVIE_LIST_BYTES = 16 * 1024 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final JavaType movieType;
+    private final JavaType movieListType;
+    private final int maxMovieBytes;
+    private final int maxMovieListBytes;
+
+    public PooledMovieDecoder() {
+        this(Jackson2ObjectMapperBuilder.json().build(), DEFAULT_MAX_MOVIE_BYTES, DEFAULT_MAX_MOVIE_LIST_BYTES);
+    }
+
+    public PooledMovieDecoder(int maxMovieBytes, int maxMovieListBytes) {
+        this(Jackson2ObjectMapperBuilder.json().build(), maxMovieBytes, maxMovieListBytes);
+    }
+
+    public PooledMovieDecoder(ObjectMapper objectMapper, int maxMovieBytes, int maxMovieListBytes) {
+        this.objectMapper = objectMapper;
+        this.movieType = objectMapper.getTypeFactory().constructType(Movie.class);
+        this.movieListType = objectMapper.getTypeFactory().constructCollectionType(List.class, Movie.class);
+        this.maxMovieBytes = maxMovieBytes;
+        this.maxMovieListBytes = maxMovieListBytes;
+    }
+
+    /**
+     * Connector whose channels allocate from a pooled allocator: the shared
+     * PooledByteBufAllocator.DEFAULT, which prefers direct buffers, or a heap-backed pool
+     * created on first use.
+     */
+    public static ReactorClientHttpConnector pooledConnector(boolean preferDirect) {
+        PooledByteBufAllocator allocator = preferDirect ? PooledByteBufAllocator.DEFAULT : HeapPool.ALLOCATOR;
+        return new ReactorClientHttpConnector(HttpClient.create()
+            .option(ChannelOption.ALLOCATOR, allocator));
+    }
+
+    public Mono<Movie> decodeMovie(Flux<DataBuffer> body) {
+        return decode(body, maxMovieBytes, movieType);
+    }
+
+    public Mono<List<Movie>> decodeMovies(Flux<DataBuffer> body) {
+        return decode(body, maxMovieListBytes, movieListType);
+    }
+
+    private <T> Mono<T> decode(Flux<DataBuffer> body, int maxBytes, JavaType type) {
+        return DataBufferUtils.join(body, maxBytes)
+            .map(buffer -> this.<T>read(buffer, type))
+            .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    private <T> T read(DataBuffer buffer, JavaType type) {
+        // closing the stream releases the buffer, whether or not parsing succeeded
+        try (InputStream inputStream = buffer.asInputStream(true)) {
+            return objectMapper.readValue(inputStream, type);
+        } catch (IOException ex) {
+            throw new DecodingException("Failed to decode " + type + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    private static class HeapPool {
+        private static final PooledByteBufAllocator ALLOCATOR = new PooledByteBufAllocator(false);
+    }
+}
@@ -6,4 +6,5 @@ public interface StringConstants {
     String GET_MOVIE_BY_NAME = "/movieservice/v1/movieName";
     String GET_MOVIE_BY_YEAR= "/movieservice/v1/movieYear";
     String ADD_MOVIE_V1 = "/movieservice/v1/movie";
+    String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout-Ms";
 }
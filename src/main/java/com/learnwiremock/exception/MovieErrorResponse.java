@@ -7,7 +7,7 @@ public class MovieErrorResponse extends RuntimeException {
         super(statusText, ex);
     }
 
-    public MovieErrorResponse(Exception ex) {
+    public MovieErrorResponse(Throwable ex) {
         super(ex);
     }
 }
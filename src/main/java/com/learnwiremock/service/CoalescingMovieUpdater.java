@@ -0,0 +1,197 @@
+package com.learnwiremock.service;
+
+import com.learnwiremock.dto.Movie;
+import com.learnwiremock.exception.MovieErrorResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opt-in write-behind mode for {@link MoviesRestClient#updateMovie(Movie, Integer)}.
+ * Updates for the same id arriving within the window are merged and sent as a single PUT:
+ * the cast of each update is appended, as the movie service does for every PUT, and the other
+ * fields take the latest non-null value. Unlike sequential updateMovie calls, the server never
+ * sees the intermediate states. At most one write per id is in flight.
+ * The number of ids waiting to be flushed is bounded; when it is reached, callers block
+ * until a flush frees a slot. Futures are completed on the completion executor, never on a
+ * flush thread, so dependents may chain further updates without stalling the flushes; only when
+ * that executor rejects the completion is it run on the flush thread instead.
+ */
+@Slf4j
+public class CoalescingMovieUpdater implements AutoCloseable {
+    private static final AtomicInteger FLUSH_THREAD_COUNT = new AtomicInteger();
+
+    private final MoviesRestClient moviesRestClient;
+    private final Duration window;
+    private final int maxPendingUpdates;
+    private final ScheduledThreadPoolExecutor flushExecutor;
+    private final Executor completionExecutor;
+
+    private final Map<Integer, PendingUpdate> pending = new HashMap<>();
+    private final Set<Integer> inFlight = new HashSet<>();
+    private boolean closed;
+
+    public CoalescingMovieUpdater(MoviesRestClient moviesRestClient, Duration window, int maxPendingUpdates, int flushThreads) {
+        this(moviesRestClient, window, maxPendingUpdates, flushThreads, ForkJoinPool.commonPool());
+    }
+
+    public CoalescingMovieUpdater(MoviesRestClient moviesRestClient, Duration window, int maxPendingUpdates, int flushThreads,
+                                  Executor completionExecutor) {
+        if (window == null || window.isZero() || window.isNegative()) {
+            throw new IllegalArgumentException("window must be positive, was " + window);
+        }
+        if (maxPendingUpdates < 1) {
+            throw new IllegalArgumentException("maxPendingUpdates must be at least 1, was " + maxPendingUpdates);
+        }
+        if (flushThreads < 1) {
+            throw new IllegalArgumentException("flushThreads must be at least 1, was " + flushThreads);
+        }
+        this.moviesRestClient = moviesRestClient;
+        this.window = window;
+        this.maxPendingUpdates = maxPendingUpdates;
+        this.completionExecutor = completionExecutor;
+        this.flushExecutor = new ScheduledThreadPoolExecutor(flushThreads, runnable -> {
+            Thread thread = new Thread(runnable, "movie-write-behind-" + FLUSH_THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // close() flushes everything itself, the windows still scheduled are no-ops by then
+        this.flushExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * @return future completed with the server's response once the merged write containing
+     * this update is acknowledged, or exceptionally with the {@link MovieErrorResponse} of that write
+     */
+    public CompletableFuture<Movie> updateMovie(Movie movie, Integer id) {
+        CompletableFuture<Movie> acknowledged = new CompletableFuture<>();
+        synchronized (this) {
+            try {
+                while (!closed && !pending.containsKey(id) && pending.size() >= maxPendingUpdates) {
+                    wait();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                acknowledged.completeExceptionally(new MovieErrorResponse(ex));
+                return acknowledged;
+            }
+            if (closed) {
+                acknowledged.completeExceptionally(new MovieErrorResponse(new IllegalStateException("CoalescingMovieUpdater is closed")));
+                return acknowledged;
+            }
+            PendingUpdate update = pending.get(id);
+            if (update == null) {
+                pending.put(id, new PendingUpdate(movie, acknowledged));
+                flushExecutor.schedule(() -> flushWhenDue(id), window.toMillis(), TimeUnit.MILLISECONDS);
+            } else {
+                update.merge(movie, acknowledged);
+            }
+        }
+        return acknowledged;
+    }
+
+    /**
+     * Stops accepting updates, releases blocked callers with a rejected future and waits until
+     * everything already accepted has been written.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+            pending.keySet().forEach(id -> flushExecutor.execute(() -> flushWhenDue(id)));
+            try {
+                while (!pending.isEmpty() || !inFlight.isEmpty()) {
+                    wait();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushExecutor.shutdown();
+    }
+
+    private void flushWhenDue(Integer id) {
+        PendingUpdate update;
+        synchronized (this) {
+            update = pending.get(id);
+            if (update == null) {
+                return;
+            }
+            if (inFlight.contains(id)) {
+                // rescheduled once the in-flight write is acknowledged
+                update.due = true;
+                return;
+            }
+            pending.remove(id);
+            inFlight.add(id);
+            notifyAll();
+        }
+        try {
+            log.debug("Flushing {} coalesced update(s) for movie {}", update.acknowledged.size(), id);
+            Movie updatedMovie;
+            try {
+                updatedMovie = moviesRestClient.updateMovie(update.movie, id);
+            } catch (Throwable ex) {
+                log.error("Write-behind update of movie {} failed", id, ex);
+                update.acknowledged.forEach(future -> acknowledge(() -> future.completeExceptionally(ex)));
+                return;
+            }
+            update.acknowledged.forEach(future -> acknowledge(() -> future.complete(updatedMovie)));
+        } finally {
+            synchronized (this) {
+                inFlight.remove(id);
+                PendingUpdate next = pending.get(id);
+                if (next != null && next.due) {
+                    flushExecutor.execute(() -> flushWhenDue(id));
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    private void acknowledge(Runnable completion) {
+        try {
+            completionExecutor.execute(completion);
+        } catch (RuntimeException ex) {
+            // e.g. a caller-supplied executor that was shut down: never leave a future incomplete
+            log.warn("Completion executor rejected an acknowledgement, completing on the flush thread", ex);
+            completion.run();
+        }
+    }
+
+    private static class PendingUpdate {
+        private Movie movie;
+        private final List<CompletableFuture<Movie>> acknowledged = new ArrayList<>();
+        private boolean due;
+
+        PendingUpdate(Movie movie, CompletableFuture<Movie> future) {
+            this.movie = movie;
+            this.acknowledged.add(future);
+        }
+
+        void merge(Movie later, CompletableFuture<Movie> future) {
+            String cast = later.getCast() == null ? movie.getCast()
+                : movie.getCast() == null ? later.getCast() : movie.getCast() + ", " + later.getCast();
+            movie = new Movie(
+                later.getMovie_id() != null ? later.getMovie_id() : movie.getMovie_id(),
+                later.getName() != null ? later.getName() : movie.getName(),
+                cast,
+                later.getRelease_date() != null ? later.getRelease_date() : movie.getRelease_date(),
+                later.getYear() != null ? later.getYear() : movie.getYear());
+            acknowledged.add(future);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.learnwiremock.service;
+
+import java.time.Duration;
+
+/**
+ * Point in time by which a client call has to complete, carried in the Reactor context
+ * so the remaining budget can be computed when the request actually goes out.
+ * Measured on the monotonic clock, so wall-clock adjustments do not shift the budget.
+ */
+class Deadline {
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    Duration remaining() {
+        long remainingNanos = expiresAtNanos - System.nanoTime();
+        return remainingNanos > 0 ? Duration.ofNanos(remainingNanos) : Duration.ZERO;
+    }
+
+    boolean isExpired() {
+        return remaining().isZero();
+    }
+}
@@ -0,0 +1,35 @@
+package com.learnwiremock.service;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeoutException;
+
+import static com.learnwiremock.constants.StringConstants.REQUEST_TIMEOUT_HEADER;
+
+/**
+ * Propagates the remaining budget of the {@link Deadline} found in the Reactor context
+ * to the server, and fails fast when that deadline has already passed.
+ */
+class DeadlineFilter implements ExchangeFilterFunction {
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.deferContextual(context -> {
+            if (!context.hasKey(Deadline.class)) {
+                return next.exchange(request);
+            }
+            Deadline deadline = context.get(Deadline.class);
+            if (deadline.isExpired()) {
+                return Mono.error(new TimeoutException("Deadline expired before " + request.method() + " " + request.url()));
+            }
+            ClientRequest requestWithBudget = ClientRequest.from(request)
+                .header(REQUEST_TIMEOUT_HEADER, String.valueOf(deadline.remaining().toMillis()))
+                .build();
+            return next.exchange(requestWithBudget);
+        });
+    }
+}
@@ -1,12 +1,18 @@
 package com.learnwiremock.service;
 
+import com.learnwiremock.codec.PooledMovieDecoder;
 import com.learnwiremock.dto.Movie;
 import com.learnwiremock.exception.MovieErrorResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
+import java.time.Duration;
 import java.util.List;
 
 import static com.learnwiremock.constants.StringConstants.ADD_MOVIE_V1;
@@ -19,43 +25,75 @@ import static com.learnwiremock.constants.StringConstants.GET_MOVIE_BY_YEAR;
 public class MoviesRestClient {
 
     private WebClient webClient;
+    private PooledMovieDecoder movieDecoder;
+    private Duration defaultTimeout;
 
     public MoviesRestClient(WebClient webClient) {
-        this.webClient = webClient;
+        this(webClient, new PooledMovieDecoder());
+    }
+
+    public MoviesRestClient(WebClient webClient, PooledMovieDecoder movieDecoder) {
+        this(webClient, movieDecoder, null);
+    }
+
+    /**
+     * @param defaultTimeout deadline applied to operations called without an explicit timeout,
+     *                       null to wait without a deadline
+     */
+    public MoviesRestClient(WebClient webClient, PooledMovieDecoder movieDecoder, Duration defaultTimeout) {
+        this.webClient = webClient.mutate().filter(new DeadlineFilter()).build();
+        this.movieDecoder = movieDecoder;
+        this.defaultTimeout = defaultTimeout;
     }
 
     public List<Movie> getAllMovies() {
+        return getAllMovies(defaultTimeout);
+    }
+
+    public List<Movie> getAllMovies(Duration timeout) {
         try {
             return webClient.get().uri(GET_ALL_MOVIES_V1)
                 .retrieve()
-                .bodyToFlux(Movie.class)
-                .collectList()
+                .bodyToFlux(DataBuffer.class)
+                .as(movieDecoder::decodeMovies)
+                .transform(response -> withDeadline(response, timeout))
                 .block();
         } catch (WebClientResponseException ex) {
             log.error("WebClientResponseException in getAllMovies, status code: {} and response body is {}.", ex.getStatusCode(), ex.getResponseBodyAsString());
             throw new MovieErrorResponse(ex.getStatusText(), ex);
         } catch (Exception ex) {
             log.error("Exception in getAllMovies and the message is {0}", ex);
-            throw new MovieErrorResponse(ex);
+            // block() wraps checked exceptions, e.g. the TimeoutException of an expired deadline
+            throw new MovieErrorResponse(Exceptions.unwrap(ex));
         }
     }
 
     public Movie getMovieById(Integer movieId) {
+        return getMovieById(movieId, defaultTimeout);
+    }
+
+    public Movie getMovieById(Integer movieId, Duration timeout) {
         try {
             return webClient.get().uri(GET_MOVIE_BY_ID, movieId)
                 .retrieve()
-                .bodyToMono(Movie.class)
+                .bodyToFlux(DataBuffer.class)
+                .as(movieDecoder::decodeMovie)
+                .transform(response -> withDeadline(response, timeout))
                 .block();
         } catch (WebClientResponseException ex) {
             log.error("WebClientResponseException in getAllMovieById, status code: {} and response body is {}.", ex.getStatusCode(), ex.getResponseBodyAsString());
             throw new MovieErrorResponse(ex.getStatusText(), ex);
         } catch (Exception ex) {
             log.error("Exception in getAllMovieById and the message is {0}", ex);
-            throw new MovieErrorResponse(ex);
+            throw new MovieErrorResponse(Exceptions.unwrap(ex));
         }
     }
 
     public List<Movie> getMoviesByName(String name) {
+        return getMoviesByName(name, defaultTimeout);
+    }
+
+    public List<Movie> getMoviesByName(String name, Duration timeout) {
         // http://localhost:8081/movieservice/v1/movieName?movie_name=Avengers
         String urlToGetMovieByName = UriComponentsBuilder.fromUriString(GET_MOVIE_BY_NAME)
             .queryParam("movie_name", name)
@@ -64,19 +102,24 @@ public class MoviesRestClient {
         try {
             return webClient.get().uri(urlToGetMovieByName)
                 .retrieve()
-                .bodyToFlux(Movie.class)
-                .collectList()
+                .bodyToFlux(DataBuffer.class)
+                .as(movieDecoder::decodeMovies)
+                .transform(response -> withDeadline(response, timeout))
                 .block();
         } catch (WebClientResponseException ex) {
             log.error("WebClientResponseException in getMoviesByName, status code: {} and response body is {}.", ex.getStatusCode(), ex.getResponseBodyAsString());
             throw new MovieErrorResponse(ex.getStatusText(), ex);
         } catch (Exception ex) {
             log.error("Exception in getMoviesByName and the message is {0}", ex);
-            throw new MovieErrorResponse(ex);
+            throw new MovieErrorResponse(Exceptions.unwrap(ex));
         }
     }
 
     public List<Movie> getMoviesByYear(String name) {
+        return getMoviesByYear(name, defaultTimeout);
+    }
+
+    public List<Movie> getMoviesByYear(String name, Duration timeout) {
 //        http://localhost:8081/movieservice/v1/movieYear?year=2012
         String urlToGetMovieByYear = UriComponentsBuilder.fromUriString(GET_MOVIE_BY_YEAR)
             .queryParam("year", name)
@@ -85,70 +128,92 @@ public class MoviesRestClient {
         try {
             return webClient.get().uri(urlToGetMovieByYear)
                 .retrieve()
-                .bodyToFlux(Movie.class)
-                .collectList()
+                .bodyToFlux(DataBuffer.class)
+                .as(movieDecoder::decodeMovies)
+                .transform(response -> withDeadline(response, timeout))
                 .block();
         } catch (WebClientResponseException ex) {
             log.error("WebClientResponseException in getMoviesByYear, status code: {} and response body is {}.", ex.getStatusCode(), ex.getResponseBodyAsString());
             throw new MovieErrorResponse(ex.getStatusText(), ex);
         } catch (Exception ex) {
             log.error("Exception in getMoviesByYear and the message is {0}", ex);
-            throw new MovieErrorResponse(ex);
+            throw new MovieErrorResponse(Exceptions.unwrap(ex));
         }
     }
 
 
     public Movie addMovie(Movie movie) {
+        return addMovie(movie, defaultTimeout);
+    }
+
+    public Movie addMovie(Movie movie, Duration timeout) {
 //       "http://localhost:8081/movieservice/v1/movie"
         try {
             return webClient.post().uri(ADD_MOVIE_V1)
                 .bodyValue(movie)
                 .retrieve()
-                .bodyToMono(Movie.class)
+                .bodyToFlux(DataBuffer.class)
+                .as(movieDecoder::decodeMovie)
+                .transform(response -> withDeadline(response, timeout))
                 .block();
         } catch (WebClientResponseException ex) {
             log.error("WebClientResponseException in addMovie, status code: {} and response body is {}.", ex.getStatusCode(), ex.getResponseBodyAsString());
             throw new MovieErrorResponse(ex.getStatusText(), ex);
         } catch (Exception ex) {
             log.error("Exception in addMovie and the message is {0}", ex);
-            throw new MovieErrorResponse(ex);
+            throw new MovieErrorResponse(Exceptions.unwrap(ex));
         }
     }
 
     public Movie updateMovie(Movie movie, Integer id) {
+        return updateMovie(movie, id, defaultTimeout);
+    }
+
+    public Movie updateMovie(Movie movie, Integer id, Duration timeout) {
 //       "http://localhost:8081/movieservice/v1/movie/1"
         try {
             return webClient.put().uri(GET_MOVIE_BY_ID, id)
                 .bodyValue(movie)
                 .retrieve()
-                .bodyToMono(Movie.class)
+                .bodyToFlux(DataBuffer.class)
+                .as(movieDecoder::decodeMovie)
+                .transform(response -> withDeadline(response, timeout))
                 .block();
         } catch (WebClientResponseException ex) {
             log.error("WebClientResponseException in updateMovie, status code: {} and response body is {}.", ex.getStatusCode(), ex.getResponseBodyAsString());
             throw new MovieErrorResponse(ex.getStatusText(), ex);
         } catch (Exception ex) {
             log.error("Exception in updateMovie and the message is {0}", ex);
-            throw new MovieErrorResponse(ex);
+            throw new MovieErrorResponse(Exceptions.unwrap(ex));
         }
     }
 
     public String deleteMovie(Long id) {
+        return deleteMovie(id, defaultTimeout);
+    }
+
+    public String deleteMovie(Long id, Duration timeout) {
 //       "http://localhost:8081/movieservice/v1/movie/1"
         try {
             return webClient.delete().uri(GET_MOVIE_BY_ID, id)
                 .retrieve()
                 .bodyToMono(String.class)
+                .transform(response -> withDeadline(response, timeout))
                 .block();
         } catch (WebClientResponseException ex) {
             log.error("WebClientResponseException in deleteMovie, status code: {} and response body is {}.", ex.getStatusCode(), ex.getResponseBodyAsString());
             throw new MovieErrorResponse(ex.getStatusText(), ex);
         } catch (Exception ex) {
             log.error("Exception in deleteMovie and the message is {0}", ex);
-            throw new MovieErrorResponse(ex);
+            throw new MovieErrorResponse(Exceptions.unwrap(ex));
         }
     }
 
     public String deleteMovieByName(String movieName) {
+        return deleteMovieByName(movieName, defaultTimeout);
+    }
+
+    public String deleteMovieByName(String movieName, Duration timeout) {
 //       "http://localhost:8081/movieservice/v1/movie?movie_name=?"
         try {
             String urlToGetMovieByName = UriComponentsBuilder.fromUriString(GET_MOVIE_BY_NAME)
@@ -158,14 +223,30 @@ public class MoviesRestClient {
             webClient.delete().uri(urlToGetMovieByName)
                 .retrieve()
                 .bodyToMono(String.class)
+                .transform(response -> withDeadline(response, timeout))
                 .block();
         } catch (WebClientResponseException ex) {
             log.error("WebClientResponseException in deleteMovie, status code: {} and response body is {}.", ex.getStatusCode(), ex.getResponseBodyAsString());
             throw new MovieErrorResponse(ex.getStatusText(), ex);
         } catch (Exception ex) {
             log.error("Exception in deleteMovie and the message is {0}", ex);
-            throw new MovieErrorResponse(ex);
+            throw new MovieErrorResponse(Exceptions.unwrap(ex));
         }
         return "Movie Deleted Successfully";
     }
+
+    /**
+     * Bounds the call by the given timeout: the remaining budget is sent to the server and,
+     * once the deadline passes, the exchange is cancelled, which closes its connection and
+     * frees the pool slot instead of waiting for an abandoned response.
+     */
+    private <T> Mono<T> withDeadline(Mono<T> response, Duration timeout) {
+        if (timeout == null) {
+            return response;
+        }
+        // the header budget and the cancellation both count down from the same deadline
+        Deadline deadline = Deadline.after(timeout);
+        return Mono.defer(() -> response.timeout(deadline.remaining()))
+            .contextWrite(Context.of(Deadline.class, deadline));
+    }
 }
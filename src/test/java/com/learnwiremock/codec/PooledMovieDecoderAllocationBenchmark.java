@@ -0,0 +1,99 @@
+package com.learnwiremock.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.learnwiremock.dto.Movie;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares bytes allocated per decode of a large movie list: the Jackson2JsonDecoder behind
+ * bodyToFlux(Movie.class) versus parsing the pooled buffers in place. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class PooledMovieDecoderAllocationBenchmark {
+    private static final int MOVIE_COUNT = 10_000;
+    private static final int CHUNK_SIZE = 8192;
+    private static final int WARMUP_ITERATIONS = 50;
+    private static final int MEASURED_ITERATIONS = 200;
+
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final Jackson2JsonDecoder jsonDecoder = new Jackson2JsonDecoder(objectMapper);
+    private final PooledMovieDecoder movieDecoder = new PooledMovieDecoder(objectMapper,
+        PooledMovieDecoder.DEFAULT_MAX_MOVIE_BYTES, PooledMovieDecoder.DEFAULT_MAX_MOVIE_LIST_BYTES);
+    private final byte[] payload = allMoviesPayload();
+
+    @Test
+    void decodeAllMovies() {
+        long codecBytes = allocatedBytesPerOp(() -> decodeWithJacksonCodec(chunks()));
+        long pooledBytes = allocatedBytesPerOp(() -> movieDecoder.decodeMovies(chunks()).block());
+
+        System.out.printf("payload: %d bytes, %d movies%n", payload.length, MOVIE_COUNT);
+        System.out.printf("Jackson2JsonDecoder: %d bytes allocated/op%n", codecBytes);
+        System.out.printf("pooled buffers:      %d bytes allocated/op%n", pooledBytes);
+    }
+
+    // the path replaced by PooledMovieDecoder: bodyToFlux(Movie.class).collectList()
+    private List<Object> decodeWithJacksonCodec(Flux<DataBuffer> body) {
+        return jsonDecoder.decode(body, ResolvableType.forClass(Movie.class), null, null)
+            .collectList()
+            .block();
+    }
+
+    private long allocatedBytesPerOp(Supplier<List<?>> decode) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            assertEquals(MOVIE_COUNT, decode.get().size());
+        }
+        long before = threadAllocatedBytes();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            decode.get();
+        }
+        return (threadAllocatedBytes() - before) / MEASURED_ITERATIONS;
+    }
+
+    private static long threadAllocatedBytes() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // simulates the response body arriving as a sequence of pooled network-sized chunks
+    private Flux<DataBuffer> chunks() {
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int offset = 0; offset < payload.length; offset += CHUNK_SIZE) {
+            int length = Math.min(CHUNK_SIZE, payload.length - offset);
+            DataBuffer buffer = bufferFactory.allocateBuffer(length);
+            buffer.write(payload, offset, length);
+            buffers.add(buffer);
+        }
+        return Flux.fromIterable(buffers);
+    }
+
+    private static byte[] allMoviesPayload() {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 1; i <= MOVIE_COUNT; i++) {
+            if (i > 1) {
+                json.append(',');
+            }
+            json.append("{\"movie_id\": ").append(i)
+                .append(", \"name\": \"Movie ").append(i)
+                .append("\", \"year\": 2012, \"cast\": \"Christian Bale, Heath Ledger , Michael Caine\"")
+                .append(", \"release_date\": \"2012-07-20\"}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,85 @@
+package com.learnwiremock.codec;
+
+import com.learnwiremock.dto.Movie;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledMovieDecoderTest {
+    private final NettyDataBufferFactory bufferFactory = new NettyDataBufferFactory(PooledByteBufAllocator.DEFAULT);
+    private final PooledMovieDecoder movieDecoder = new PooledMovieDecoder(1024, 4096);
+
+    @Test
+    void decodeMovieReleasesBuffers() {
+        //given
+        NettyDataBuffer first = buffer("{\"movie_id\": 1, \"name\": \"Batman Begins\", ");
+        NettyDataBuffer second = buffer("\"year\": 2005, \"release_date\": \"2005-06-15\"}");
+
+        //when
+        Movie movie = movieDecoder.decodeMovie(Flux.just(first, second)).block();
+
+        //then
+        assertEquals("Batman Begins", movie.getName());
+        assertEquals(LocalDate.of(2005, 6, 15), movie.getRelease_date());
+        assertReleased(first, second);
+    }
+
+    @Test
+    void decodeMoviesReleasesBuffers() {
+        //given
+        NettyDataBuffer first = buffer("[{\"movie_id\": 1, \"name\": \"Batman Begins\"},");
+        NettyDataBuffer second = buffer("{\"movie_id\": 2, \"name\": \"Dark Knight\"}]");
+
+        //when
+        List<Movie> movieList = movieDecoder.decodeMovies(Flux.just(first, second)).block();
+
+        //then
+        assertEquals(2, movieList.size());
+        assertReleased(first, second);
+    }
+
+    @Test
+    void decodeMovieMalformedJsonReleasesBuffers() {
+        //given
+        NettyDataBuffer first = buffer("{\"movie_id\": 1, ");
+        NettyDataBuffer second = buffer("\"name\": ");
+
+        //then
+        assertThrows(DecodingException.class, () -> movieDecoder.decodeMovie(Flux.just(first, second)).block());
+        assertReleased(first, second);
+    }
+
+    @Test
+    void decodeMovieOverLimitReleasesBuffers() {
+        //given
+        NettyDataBuffer oversized = buffer("{\"cast\": \"" + "x".repeat(2048) + "\"}");
+
+        //then
+        assertThrows(DataBufferLimitException.class, () -> movieDecoder.decodeMovie(Flux.just(oversized)).block());
+        assertReleased(oversized);
+    }
+
+    private NettyDataBuffer buffer(String json) {
+        NettyDataBuffer buffer = bufferFactory.allocateBuffer();
+        buffer.write(json, StandardCharsets.UTF_8);
+        return buffer;
+    }
+
+    private static void assertReleased(NettyDataBuffer... buffers) {
+        for (NettyDataBuffer buffer : buffers) {
+            ByteBuf nativeBuffer = buffer.getNativeBuffer();
+            assertEquals(0, nativeBuffer.refCnt());
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.learnwiremock.service;
+
+import com.github.jenspiegsa.wiremockextension.ConfigureWireMock;
+import com.github.jenspiegsa.wiremockextension.InjectServer;
+import com.github.jenspiegsa.wiremockextension.WireMockExtension;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.common.ConsoleNotifier;
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.extension.responsetemplating.ResponseTemplateTransformer;
+import com.learnwiremock.dto.Movie;
+import com.learnwiremock.exception.MovieErrorResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
+import static com.github.tomakehurst.wiremock.client.WireMock.matchingJsonPath;
+import static com.github.tomakehurst.wiremock.client.WireMock.put;
+import static com.github.tomakehurst.wiremock.client.WireMock.putRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(WireMockExtension.class)
+class CoalescingMovieUpdaterTest {
+    @InjectServer
+    private WireMockServer wireMockServer;
+
+    @ConfigureWireMock
+    private Options options = wireMockConfig().port(8088)
+        .notifier(new ConsoleNotifier(true))
+        .extensions(new ResponseTemplateTransformer(true));
+
+    private MoviesRestClient moviesRestClient;
+    private CoalescingMovieUpdater coalescingMovieUpdater;
+
+    @BeforeEach
+    void setUp() {
+        String baseUrl = String.format("http://localhost:%s", wireMockServer.port());
+        moviesRestClient = new MoviesRestClient(WebClient.create(baseUrl));
+        coalescingMovieUpdater = new CoalescingMovieUpdater(moviesRestClient, Duration.ofMillis(200), 16, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescingMovieUpdater.close();
+    }
+
+    @Test
+    void rapidUpdatesForSameIdSentAsOnePut() throws Exception {
+        //given
+        stubUpdate();
+        List<CompletableFuture<Movie>> futures = new ArrayList<>();
+        List<String> casts = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < 10; i++) {
+            casts.add("Cast " + i);
+            futures.add(coalescingMovieUpdater.updateMovie(new Movie(null, null, "Cast " + i, null, null), 3));
+        }
+
+        //then
+        // the service appends the cast of every PUT, so the merged write carries all ten additions
+        String mergedCast = String.join(", ", casts);
+        for (CompletableFuture<Movie> future : futures) {
+            assertTrue(future.get().getCast().endsWith(mergedCast));
+        }
+        verify(exactly(1), putRequestedFor(urlEqualTo("/movieservice/v1/movie/3"))
+            .withRequestBody(matchingJsonPath("$.cast", equalTo(mergedCast))));
+    }
+
+    @Test
+    void updatesMergedFieldByField() throws Exception {
+        //given
+        stubUpdate();
+
+        //when
+        CompletableFuture<Movie> castUpdate = coalescingMovieUpdater.updateMovie(new Movie(null, null, "ABC", null, 2012), 3);
+        CompletableFuture<Movie> yearUpdate = coalescingMovieUpdater.updateMovie(new Movie(null, null, null, null, 2013), 3);
+        CompletableFuture<Movie> nameUpdate = coalescingMovieUpdater.updateMovie(new Movie(null, "Toy Story 5", "DEF", null, null), 3);
+
+        //then
+        assertSame(castUpdate.get(), yearUpdate.get());
+        assertSame(castUpdate.get(), nameUpdate.get());
+        verify(exactly(1), putRequestedFor(urlEqualTo("/movieservice/v1/movie/3"))
+            .withRequestBody(matchingJsonPath("$.cast", equalTo("ABC, DEF")))
+            .withRequestBody(matchingJsonPath("$.name", equalTo("Toy Story 5")))
+            .withRequestBody(matchingJsonPath("$.year", equalTo("2013"))));
+    }
+
+    @Test
+    void updatesForDifferentIdsNotMerged() throws Exception {
+        //given
+        stubUpdate();
+
+        //when
+        CompletableFuture<Movie> first = coalescingMovieUpdater.updateMovie(new Movie(null, null, "ABC", null, null), 1);
+        CompletableFuture<Movie> second = coalescingMovieUpdater.updateMovie(new Movie(null, null, "DEF", null, null), 2);
+        CompletableFuture.allOf(first, second).get();
+
+        //then
+        verify(exactly(1), putRequestedFor(urlEqualTo("/movieservice/v1/movie/1")));
+        verify(exactly(1), putRequestedFor(urlEqualTo("/movieservice/v1/movie/2")));
+    }
+
+    @Test
+    void updatesAfterFlushSentAsNextPut() throws Exception {
+        //given
+        stubUpdate();
+
+        //when
+        coalescingMovieUpdater.updateMovie(new Movie(null, null, "ABC", null, null), 3).get();
+        coalescingMovieUpdater.updateMovie(new Movie(null, null, "DEF", null, null), 3).get();
+
+        //then
+        verify(exactly(2), putRequestedFor(urlEqualTo("/movieservice/v1/movie/3")));
+    }
+
+    @Test
+    void failedWriteCompletesAllMergedFuturesExceptionally() {
+        //given
+        stubFor(put(urlPathMatching("/movieservice/v1/movie/[0-9]+"))
+            .willReturn(WireMock.aResponse()
+                .withStatus(HttpStatus.NOT_FOUND.value())));
+
+        //when
+        CompletableFuture<Movie> first = coalescingMovieUpdater.updateMovie(new Movie(null, null, "ABC", null, null), 100);
+        CompletableFuture<Movie> second = coalescingMovieUpdater.updateMovie(new Movie(null, null, "DEF", null, null), 100);
+
+        //then
+        ExecutionException firstFailure = assertThrows(ExecutionException.class, first::get);
+        ExecutionException secondFailure = assertThrows(ExecutionException.class, second::get);
+        assertTrue(firstFailure.getCause() instanceof MovieErrorResponse);
+        assertTrue(secondFailure.getCause() instanceof MovieErrorResponse);
+        verify(exactly(1), putRequestedFor(urlEqualTo("/movieservice/v1/movie/100")));
+    }
+
+    @Test
+    void closeFlushesPendingUpdatesAndRejectsNewOnes() throws Exception {
+        //given
+        stubUpdate();
+        CompletableFuture<Movie> pendingUpdate = coalescingMovieUpdater.updateMovie(new Movie(null, null, "ABC", null, null), 3);
+
+        //when
+        coalescingMovieUpdater.close();
+
+        //then
+        assertTrue(pendingUpdate.get(5, TimeUnit.SECONDS).getCast().contains("ABC"));
+        CompletableFuture<Movie> rejected = coalescingMovieUpdater.updateMovie(new Movie(null, null, "DEF", null, null), 3);
+        assertThrows(ExecutionException.class, rejected::get);
+        verify(exactly(1), putRequestedFor(urlEqualTo("/movieservice/v1/movie/3")));
+    }
+
+    @Test
+    void fullQueueBlocksCallerUntilFlushFreesSlot() throws Exception {
+        //given
+        stubUpdate();
+        CoalescingMovieUpdater boundedUpdater = new CoalescingMovieUpdater(moviesRestClient, Duration.ofMillis(1000), 1, 1);
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<Movie> first = boundedUpdater.updateMovie(new Movie(null, null, "ABC", null, null), 1);
+
+            //when
+            Future<CompletableFuture<Movie>> blocked = caller.submit(() -> boundedUpdater.updateMovie(new Movie(null, null, "DEF", null, null), 2));
+
+            //then
+            assertThrows(TimeoutException.class, () -> blocked.get(300, TimeUnit.MILLISECONDS));
+            assertTrue(blocked.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS).getCast().contains("DEF"));
+            assertTrue(first.get(5, TimeUnit.SECONDS).getCast().contains("ABC"));
+            verify(exactly(1), putRequestedFor(urlEqualTo("/movieservice/v1/movie/1")));
+            verify(exactly(1), putRequestedFor(urlEqualTo("/movieservice/v1/movie/2")));
+        } finally {
+            caller.shutdownNow();
+            boundedUpdater.close();
+        }
+    }
+
+    @Test
+    void closeReleasesBlockedCallerWithRejectedFuture() throws Exception {
+        //given
+        stubUpdate();
+        CoalescingMovieUpdater boundedUpdater = new CoalescingMovieUpdater(moviesRestClient, Duration.ofSeconds(30), 1, 1);
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<Movie> first = boundedUpdater.updateMovie(new Movie(null, null, "ABC", null, null), 1);
+            Future<CompletableFuture<Movie>> blocked = caller.submit(() -> boundedUpdater.updateMovie(new Movie(null, null, "DEF", null, null), 2));
+            assertThrows(TimeoutException.class, () -> blocked.get(300, TimeUnit.MILLISECONDS));
+
+            //when
+            boundedUpdater.close();
+
+            //then
+            ExecutionException rejection = assertThrows(ExecutionException.class, () -> blocked.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS));
+            assertTrue(rejection.getCause() instanceof MovieErrorResponse);
+            assertTrue(first.get(5, TimeUnit.SECONDS).getCast().contains("ABC"));
+            verify(exactly(0), putRequestedFor(urlEqualTo("/movieservice/v1/movie/2")));
+        } finally {
+            caller.shutdownNow();
+            boundedUpdater.close();
+        }
+    }
+
+    @Test
+    void dependentChainingUpdateDoesNotStallFlushThread() throws Exception {
+        //given
+        stubUpdate();
+        CoalescingMovieUpdater boundedUpdater = new CoalescingMovieUpdater(moviesRestClient, Duration.ofMillis(100), 1, 1);
+        try {
+            //when
+            CompletableFuture<Movie> chained = boundedUpdater.updateMovie(new Movie(null, null, "ABC", null, null), 1)
+                .thenCompose(movie -> {
+                    boundedUpdater.updateMovie(new Movie(null, null, "GHI", null, null), 3);
+                    return boundedUpdater.updateMovie(new Movie(null, null, "DEF", null, null), 2);
+                });
+
+            //then
+            assertTrue(chained.get(5, TimeUnit.SECONDS).getCast().contains("DEF"));
+        } finally {
+            boundedUpdater.close();
+        }
+    }
+
+    @Test
+    void rejectingCompletionExecutorStillCompletesFutures() throws Exception {
+        //given
+        stubUpdate();
+        Executor rejecting = command -> {
+            throw new RejectedExecutionException("completion executor shut down");
+        };
+        CoalescingMovieUpdater rejectingUpdater = new CoalescingMovieUpdater(moviesRestClient, Duration.ofMillis(100), 16, 1, rejecting);
+        try {
+            //when
+            CompletableFuture<Movie> update = rejectingUpdater.updateMovie(new Movie(null, null, "ABC", null, null), 3);
+
+            //then
+            assertTrue(update.get(5, TimeUnit.SECONDS).getCast().contains("ABC"));
+            verify(exactly(1), putRequestedFor(urlEqualTo("/movieservice/v1/movie/3")));
+        } finally {
+            rejectingUpdater.close();
+        }
+    }
+
+    @Test
+    void invalidConfigurationRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new CoalescingMovieUpdater(moviesRestClient, Duration.ofMillis(100), 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new CoalescingMovieUpdater(moviesRestClient, Duration.ZERO, 16, 1));
+        assertThrows(IllegalArgumentException.class, () -> new CoalescingMovieUpdater(moviesRestClient, Duration.ofMillis(-1), 16, 1));
+        assertThrows(IllegalArgumentException.class, () -> new CoalescingMovieUpdater(moviesRestClient, Duration.ofMillis(100), 16, 0));
+    }
+
+    private void stubUpdate() {
+        stubFor(put(urlPathMatching("/movieservice/v1/movie/[0-9]+"))
+            .willReturn(WireMock.aResponse()
+                .withStatus(HttpStatus.OK.value())
+                .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withBodyFile("update-movie-template.json")));
+    }
+}
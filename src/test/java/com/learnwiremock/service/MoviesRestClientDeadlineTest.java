@@ -0,0 +1,181 @@
+package com.learnwiremock.service;
+
+import com.github.jenspiegsa.wiremockextension.ConfigureWireMock;
+import com.github.jenspiegsa.wiremockextension.InjectServer;
+import com.github.jenspiegsa.wiremockextension.WireMockExtension;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.common.ConsoleNotifier;
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.extension.responsetemplating.ResponseTemplateTransformer;
+import com.learnwiremock.codec.PooledMovieDecoder;
+import com.learnwiremock.dto.Movie;
+import com.learnwiremock.exception.MovieErrorResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.context.Context;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.absent;
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.matching;
+import static com.github.tomakehurst.wiremock.client.WireMock.ok;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static com.learnwiremock.constants.StringConstants.GET_ALL_MOVIES_V1;
+import static com.learnwiremock.constants.StringConstants.REQUEST_TIMEOUT_HEADER;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(WireMockExtension.class)
+class MoviesRestClientDeadlineTest {
+    private static final int SERVER_DELAY_MILLIS = 5000;
+    private static final int DEADLINE_MILLIS = 300;
+    private static final int CANCELLATION_SLACK_MILLIS = 1700;
+
+    @InjectServer
+    private WireMockServer wireMockServer;
+
+    @ConfigureWireMock
+    private Options options = wireMockConfig().port(8088)
+        .notifier(new ConsoleNotifier(true))
+        .extensions(new ResponseTemplateTransformer(true));
+
+    // a single pooled connection: a call that is not cancelled on its deadline starves the next one
+    private ConnectionProvider connectionProvider;
+    private MoviesRestClient moviesRestClient;
+
+    @BeforeEach
+    void setUp() {
+        connectionProvider = ConnectionProvider.builder("deadline-test")
+            .maxConnections(1)
+            .pendingAcquireTimeout(Duration.ofSeconds(2))
+            .build();
+        String baseUrl = String.format("http://localhost:%s", wireMockServer.port());
+        WebClient webClient = WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+            .baseUrl(baseUrl)
+            .build();
+        moviesRestClient = new MoviesRestClient(webClient, new PooledMovieDecoder(), Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionProvider.dispose();
+    }
+
+    @Test
+    void getAllMoviesCancelledOnDeadline() {
+        //given
+        stubFor(get(urlPathEqualTo(GET_ALL_MOVIES_V1))
+            .willReturn(ok().withFixedDelay(SERVER_DELAY_MILLIS)));
+
+        //when
+        long start = System.nanoTime();
+        MovieErrorResponse movieErrorResponse = assertThrows(MovieErrorResponse.class,
+            () -> moviesRestClient.getAllMovies(Duration.ofMillis(DEADLINE_MILLIS)));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        //then
+        assertTrue(movieErrorResponse.getCause() instanceof TimeoutException);
+        assertTrue(elapsedMillis < DEADLINE_MILLIS + CANCELLATION_SLACK_MILLIS,
+            "call took " + elapsedMillis + "ms with a " + DEADLINE_MILLIS + "ms deadline");
+    }
+
+    @Test
+    void cancelledCallReleasesPooledConnection() {
+        //given
+        stubFor(get(urlPathEqualTo(GET_ALL_MOVIES_V1))
+            .willReturn(ok().withFixedDelay(SERVER_DELAY_MILLIS)));
+        stubFor(get(urlPathMatching("/movieservice/v1/movie/[0-9]+"))
+            .willReturn(okJson("{\"movie_id\": 1, \"name\": \"Batman Begins\"}")));
+        assertThrows(MovieErrorResponse.class, () -> moviesRestClient.getAllMovies(Duration.ofMillis(DEADLINE_MILLIS)));
+
+        //when
+        Movie movie = moviesRestClient.getMovieById(1, Duration.ofSeconds(3));
+
+        //then
+        assertEquals("Batman Begins", movie.getName());
+    }
+
+    @Test
+    void expiredDeadlineFailsBeforeSending() {
+        //given
+        AtomicBoolean sent = new AtomicBoolean();
+        ClientRequest request = ClientRequest.create(HttpMethod.GET,
+            URI.create(String.format("http://localhost:%s%s", wireMockServer.port(), GET_ALL_MOVIES_V1))).build();
+
+        //when
+        Mono<ClientResponse> response = new DeadlineFilter()
+            .filter(request, exchangedRequest -> {
+                sent.set(true);
+                return Mono.empty();
+            })
+            .contextWrite(Context.of(Deadline.class, Deadline.after(Duration.ZERO)));
+
+        //then
+        Exception failure = assertThrows(Exception.class, response::block);
+        assertTrue(Exceptions.unwrap(failure) instanceof TimeoutException);
+        assertFalse(sent.get());
+    }
+
+    @Test
+    void getAllMoviesWithExpiredDeadlineNotSent() {
+        //when
+        MovieErrorResponse movieErrorResponse = assertThrows(MovieErrorResponse.class,
+            () -> moviesRestClient.getAllMovies(Duration.ZERO));
+
+        //then
+        assertTrue(movieErrorResponse.getCause() instanceof TimeoutException);
+        verify(exactly(0), getRequestedFor(urlPathEqualTo(GET_ALL_MOVIES_V1)));
+    }
+
+    @Test
+    void remainingBudgetPropagatedInHeader() {
+        //given
+        stubFor(get(urlPathEqualTo(GET_ALL_MOVIES_V1))
+            .willReturn(okJson("[]")));
+
+        //when
+        List<Movie> movieList = moviesRestClient.getAllMovies();
+
+        //then
+        assertTrue(movieList.isEmpty());
+        verify(getRequestedFor(urlPathEqualTo(GET_ALL_MOVIES_V1))
+            .withHeader(REQUEST_TIMEOUT_HEADER, matching("[0-9]+")));
+    }
+
+    @Test
+    void noDeadlineSendsNoBudgetHeader() {
+        //given
+        stubFor(get(urlPathEqualTo(GET_ALL_MOVIES_V1))
+            .willReturn(okJson("[]")));
+
+        //when
+        moviesRestClient.getAllMovies(null);
+
+        //then
+        verify(getRequestedFor(urlPathEqualTo(GET_ALL_MOVIES_V1))
+            .withHeader(REQUEST_TIMEOUT_HEADER, absent()));
+    }
+}
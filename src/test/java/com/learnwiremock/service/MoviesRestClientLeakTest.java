@@ -0,0 +1,162 @@
+package com.learnwiremock.service;
+
+import com.github.jenspiegsa.wiremockextension.ConfigureWireMock;
+import com.github.jenspiegsa.wiremockextension.InjectServer;
+import com.github.jenspiegsa.wiremockextension.WireMockExtension;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.WireMock;
+import com.github.tomakehurst.wiremock.common.ConsoleNotifier;
+import com.github.tomakehurst.wiremock.core.Options;
+import com.github.tomakehurst.wiremock.extension.responsetemplating.ResponseTemplateTransformer;
+import com.learnwiremock.codec.PooledMovieDecoder;
+import com.learnwiremock.dto.Movie;
+import com.learnwiremock.exception.MovieErrorResponse;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.ResourceLeakDetector;
+import io.netty.util.ResourceLeakDetectorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static com.learnwiremock.constants.StringConstants.GET_ALL_MOVIES_V1;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the pooled decode path against real Netty response buffers with paranoid leak detection,
+ * failing on any leak Netty reports. Netty creates its ByteBuf leak detector once per JVM, so this
+ * class runs in its own JVM through the leakTest task, before anything else touches Netty.
+ */
+@Tag("leak")
+@ExtendWith(WireMockExtension.class)
+class MoviesRestClientLeakTest {
+    private static final Queue<String> LEAKS = new ConcurrentLinkedQueue<>();
+    private static final Queue<Class<?>> TRACKED_TYPES = new ConcurrentLinkedQueue<>();
+
+    @InjectServer
+    private WireMockServer wireMockServer;
+
+    @ConfigureWireMock
+    private Options options = wireMockConfig().port(8088)
+        .notifier(new ConsoleNotifier(true))
+        .extensions(new ResponseTemplateTransformer(true));
+
+    private WebClient webClient;
+    private MoviesRestClient moviesRestClient;
+
+    @BeforeAll
+    static void installCapturingLeakDetector() {
+        ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+        ResourceLeakDetectorFactory.setResourceLeakDetectorFactory(new CapturingLeakDetectorFactory());
+        ByteBufAllocator.DEFAULT.buffer(1).release();
+        assertTrue(TRACKED_TYPES.contains(ByteBuf.class),
+            "Netty's ByteBuf leak detector was created before the capturing factory was installed");
+    }
+
+    @BeforeEach
+    void setUp() {
+        String baseUrl = String.format("http://localhost:%s", wireMockServer.port());
+        webClient = WebClient.builder()
+            .clientConnector(PooledMovieDecoder.pooledConnector(true))
+            .baseUrl(baseUrl)
+            .build();
+        moviesRestClient = new MoviesRestClient(webClient);
+    }
+
+    @AfterEach
+    void assertNoLeaks() throws InterruptedException {
+        // leaks are reported when a later allocation polls the queue of collected buffers
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(50);
+            PooledByteBufAllocator.DEFAULT.buffer(1).release();
+        }
+        List<String> leaks = List.copyOf(LEAKS);
+        LEAKS.clear();
+        assertTrue(leaks.isEmpty(), "Netty reported leaked buffers: " + leaks);
+    }
+
+    @Test
+    void getAllMovies() {
+        //given
+        stubAllMovies();
+
+        //when
+        List<Movie> movieList = moviesRestClient.getAllMovies();
+
+        //then
+        assertTrue(movieList.size()>0);
+    }
+
+    @Test
+    void getMovieByIdNotFound() {
+        //given
+        stubFor(get(urlPathMatching("/movieservice/v1/movie/[0-9]+"))
+            .willReturn(WireMock.aResponse()
+                .withStatus(HttpStatus.NOT_FOUND.value())
+                .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withBodyFile("404-movieId.json")));
+
+        //then
+        assertThrows(MovieErrorResponse.class, () -> moviesRestClient.getMovieById(100));
+    }
+
+    @Test
+    void getAllMoviesOverSizeLimit() {
+        //given
+        stubAllMovies();
+        MoviesRestClient limitedMoviesRestClient = new MoviesRestClient(webClient, new PooledMovieDecoder(1024, 64));
+
+        //then
+        MovieErrorResponse movieErrorResponse = assertThrows(MovieErrorResponse.class, () -> limitedMoviesRestClient.getAllMovies());
+        assertTrue(movieErrorResponse.getCause() instanceof DataBufferLimitException);
+    }
+
+    private void stubAllMovies() {
+        stubFor(get(urlPathEqualTo(GET_ALL_MOVIES_V1))
+            .willReturn(WireMock.aResponse()
+                .withStatus(HttpStatus.OK.value())
+                .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withBodyFile("all-movies.json")));
+    }
+
+    private static class CapturingLeakDetectorFactory extends ResourceLeakDetectorFactory {
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public <T> ResourceLeakDetector<T> newResourceLeakDetector(Class<T> resource, int samplingInterval, long maxActive) {
+            TRACKED_TYPES.add(resource);
+            return new ResourceLeakDetector<>(resource, samplingInterval) {
+                @Override
+                protected void reportTracedLeak(String resourceType, String records) {
+                    LEAKS.add(resourceType + records);
+                    super.reportTracedLeak(resourceType, records);
+                }
+
+                @Override
+                protected void reportUntracedLeak(String resourceType) {
+                    LEAKS.add(resourceType);
+                    super.reportUntracedLeak(resourceType);
+                }
+            };
+        }
+    }
+}
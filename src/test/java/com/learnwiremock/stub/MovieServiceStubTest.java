@@ -0,0 +1,185 @@
+package com.learnwiremock.stub;
+
+import com.learnwiremock.dto.Movie;
+import com.learnwiremock.exception.MovieErrorResponse;
+import com.learnwiremock.service.MoviesRestClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.exactly;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.putRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.serverError;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.learnwiremock.constants.StringConstants.GET_ALL_MOVIES_V1;
+import static com.learnwiremock.constants.StringConstants.GET_MOVIE_BY_NAME;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieServiceStubTest {
+    private final MovieServiceStub movieServiceStub = MovieServiceStub.instance();
+
+    private String namespace;
+    private MoviesRestClient moviesRestClient;
+
+    @BeforeEach
+    void setUp() {
+        namespace = movieServiceStub.newNamespace();
+        moviesRestClient = movieServiceStub.moviesRestClient(namespace);
+        movieServiceStub.seed(namespace,
+            new Movie(null, "Batman Begins", "Christian Bale, Katie Holmes , Liam Neeson", LocalDate.of(2005, 6, 15), 2005),
+            new Movie(null, "The Dark Knight Rises", "Christian Bale, Heath Ledger , Michael Caine", LocalDate.of(2012, 7, 20), 2012),
+            new Movie(null, "The Avengers", "Robert Downey Jr, Chris Evans , Chris HemsWorth", LocalDate.of(2012, 5, 4), 2012));
+    }
+
+    @AfterEach
+    void tearDown() {
+        movieServiceStub.reset(namespace);
+    }
+
+    @Test
+    void startedOnceOnDynamicPort() {
+        assertSame(movieServiceStub, MovieServiceStub.instance());
+        assertTrue(movieServiceStub.port() > 0);
+    }
+
+    @Test
+    void getAllMovies() {
+        //when
+        List<Movie> movieList = moviesRestClient.getAllMovies();
+
+        //then
+        assertEquals(3, movieList.size());
+        assertEquals(LocalDate.of(2005, 6, 15), movieList.get(0).getRelease_date());
+    }
+
+    @Test
+    void getMovieByIdAndNotFound() {
+        //when
+        Movie movie = moviesRestClient.getMovieById(1);
+
+        //then
+        assertEquals("Batman Begins", movie.getName());
+        assertThrows(MovieErrorResponse.class, () -> moviesRestClient.getMovieById(100));
+    }
+
+    @Test
+    void getMoviesByNameAndYear() {
+        assertEquals(1, moviesRestClient.getMoviesByName("Avengers").size());
+        assertEquals(2, moviesRestClient.getMoviesByYear("2012").size());
+        assertThrows(MovieErrorResponse.class, () -> moviesRestClient.getMoviesByName("DDLJ"));
+        assertThrows(MovieErrorResponse.class, () -> moviesRestClient.getMoviesByYear("2030"));
+    }
+
+    @Test
+    void addUpdateAndDeleteMovie() {
+        //given
+        Movie movie = new Movie(null, "Toy Story 4", "Tom Hanks, Tim Allen", LocalDate.of(2019, 6, 21), 2019);
+
+        //when
+        Movie addedMovie = moviesRestClient.addMovie(movie);
+        Movie updatedMovie = moviesRestClient.updateMovie(new Movie(null, null, "ABC", null, null), addedMovie.getMovie_id().intValue());
+        String responseMessage = moviesRestClient.deleteMovie(addedMovie.getMovie_id());
+
+        //then
+        assertNotNull(addedMovie.getMovie_id());
+        assertEquals("Tom Hanks, Tim Allen, ABC", updatedMovie.getCast());
+        assertEquals("Movie Deleted Successfully", responseMessage);
+        assertEquals(3, movieServiceStub.movies(namespace).size());
+    }
+
+    @Test
+    void addMovieBadRequest() {
+        Movie movie = new Movie(null, null, "Tom Hanks, Tim Allen", LocalDate.of(2019, 6, 21), 2019);
+        assertThrows(MovieErrorResponse.class, () -> moviesRestClient.addMovie(movie));
+    }
+
+    @Test
+    void deleteMovieByName() {
+        //when
+        String responseMessage = moviesRestClient.deleteMovieByName("The Avengers");
+
+        //then
+        assertEquals("Movie Deleted Successfully", responseMessage);
+        assertEquals(2, movieServiceStub.movies(namespace).size());
+    }
+
+    @Test
+    void namespacesIsolated() {
+        //given
+        String otherNamespace = movieServiceStub.newNamespace();
+        MoviesRestClient otherMoviesRestClient = movieServiceStub.moviesRestClient(otherNamespace);
+
+        try {
+            //when
+            otherMoviesRestClient.addMovie(new Movie(null, "Toy Story 4", "Tom Hanks, Tim Allen", LocalDate.of(2019, 6, 21), 2019));
+
+            //then
+            assertEquals(1, otherMoviesRestClient.getAllMovies().size());
+            assertEquals(3, moviesRestClient.getAllMovies().size());
+        } finally {
+            movieServiceStub.reset(otherNamespace);
+        }
+    }
+
+    @Test
+    void namespaceStubOverridesStore() {
+        //given
+        movieServiceStub.stubFor(namespace, get(urlPathEqualTo(GET_ALL_MOVIES_V1)).willReturn(serverError()));
+        String otherNamespace = movieServiceStub.newNamespace();
+
+        try {
+            //then
+            assertThrows(MovieErrorResponse.class, () -> moviesRestClient.getAllMovies());
+            assertTrue(movieServiceStub.moviesRestClient(otherNamespace).getAllMovies().isEmpty());
+        } finally {
+            movieServiceStub.reset(otherNamespace);
+        }
+    }
+
+    @Test
+    void verifyCountsOnlyNamespaceRequests() {
+        //given
+        String otherNamespace = movieServiceStub.newNamespace();
+        MoviesRestClient otherMoviesRestClient = movieServiceStub.moviesRestClient(otherNamespace);
+        movieServiceStub.seed(otherNamespace,
+            new Movie(null, "Toy Story 4", "Tom Hanks, Tim Allen", LocalDate.of(2019, 6, 21), 2019));
+
+        try {
+            //when
+            moviesRestClient.updateMovie(new Movie(null, null, "ABC", null, null), 1);
+            otherMoviesRestClient.updateMovie(new Movie(null, null, "ABC", null, null), 1);
+            otherMoviesRestClient.updateMovie(new Movie(null, null, "DEF", null, null), 1);
+
+            //then
+            movieServiceStub.verify(namespace, exactly(1), putRequestedFor(urlPathMatching("/movieservice/v1/movie/[0-9]+")));
+            movieServiceStub.verify(otherNamespace, exactly(2), putRequestedFor(urlPathMatching("/movieservice/v1/movie/[0-9]+")));
+        } finally {
+            movieServiceStub.reset(otherNamespace);
+        }
+
+        //then
+        movieServiceStub.verify(otherNamespace, exactly(0), putRequestedFor(urlPathMatching("/movieservice/v1/movie/[0-9]+")));
+        movieServiceStub.verify(namespace, exactly(1), putRequestedFor(urlPathMatching("/movieservice/v1/movie/[0-9]+")));
+    }
+
+    @Test
+    void unsupportedMethodOnSearchPathNotFound() {
+        //given
+        WebClient webClient = movieServiceStub.webClient(namespace);
+
+        //when
+        HttpStatus status = webClient.post().uri(GET_MOVIE_BY_NAME + "?movie_name=Avengers")
+            .exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()))
+            .block();
+
+        //then
+        assertEquals(HttpStatus.NOT_FOUND, status);
+    }
+}
@@ -0,0 +1,82 @@
+package com.learnwiremock.stub;
+
+import com.learnwiremock.dto.Movie;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Movies of one stub namespace, kept in id order so listings are stable.
+ */
+class InMemoryMovieStore {
+    private final ConcurrentNavigableMap<Long, Movie> movies = new ConcurrentSkipListMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+
+    Movie add(Movie movie) {
+        long id = nextId.getAndIncrement();
+        Movie stored = new Movie(id, movie.getName(), movie.getCast(), movie.getRelease_date(), movie.getYear());
+        movies.put(id, stored);
+        return copy(stored);
+    }
+
+    List<Movie> findAll() {
+        return movies.values().stream().map(InMemoryMovieStore::copy).collect(Collectors.toList());
+    }
+
+    Optional<Movie> findById(long id) {
+        return Optional.ofNullable(movies.get(id)).map(InMemoryMovieStore::copy);
+    }
+
+    List<Movie> findByName(String name) {
+        String lowerCaseName = name.toLowerCase();
+        return movies.values().stream()
+            .filter(movie -> movie.getName() != null && movie.getName().toLowerCase().contains(lowerCaseName))
+            .map(InMemoryMovieStore::copy)
+            .collect(Collectors.toList());
+    }
+
+    List<Movie> findByYear(int year) {
+        return movies.values().stream()
+            .filter(movie -> movie.getYear() != null && movie.getYear() == year)
+            .map(InMemoryMovieStore::copy)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Mirrors the movie service: non-null fields replace the stored ones, except the cast
+     * which is appended to.
+     */
+    Optional<Movie> update(long id, Movie update) {
+        Movie updated = movies.computeIfPresent(id, (movieId, existing) -> new Movie(movieId,
+            update.getName() != null ? update.getName() : existing.getName(),
+            update.getCast() == null ? existing.getCast()
+                : existing.getCast() == null ? update.getCast() : existing.getCast() + ", " + update.getCast(),
+            update.getRelease_date() != null ? update.getRelease_date() : existing.getRelease_date(),
+            update.getYear() != null ? update.getYear() : existing.getYear()));
+        return Optional.ofNullable(updated).map(InMemoryMovieStore::copy);
+    }
+
+    boolean deleteById(long id) {
+        return movies.remove(id) != null;
+    }
+
+    boolean deleteByName(String name) {
+        List<Long> ids = new ArrayList<>();
+        movies.forEach((id, movie) -> {
+            if (name.equals(movie.getName())) {
+                ids.add(id);
+            }
+        });
+        ids.forEach(movies::remove);
+        return !ids.isEmpty();
+    }
+
+    private static Movie copy(Movie movie) {
+        return new Movie(movie.getMovie_id(), movie.getName(), movie.getCast(), movie.getRelease_date(), movie.getYear());
+    }
+}
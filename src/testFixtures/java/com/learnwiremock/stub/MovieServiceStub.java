@@ -0,0 +1,155 @@
+package com.learnwiremock.stub;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.CountMatchingStrategy;
+import com.github.tomakehurst.wiremock.client.MappingBuilder;
+import com.github.tomakehurst.wiremock.matching.RequestPatternBuilder;
+import com.github.tomakehurst.wiremock.stubbing.StubMapping;
+import com.learnwiremock.dto.Movie;
+import com.learnwiremock.service.MoviesRestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.any;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.anyUrl;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+
+/**
+ * In-process movie service for consumers' tests, started once per JVM on a dynamic port.
+ * Movies live in memory and every endpoint of {@link com.learnwiremock.constants.StringConstants}
+ * is served from them, so no stubbing or response templates are needed for the happy paths.
+ *
+ * <p>Tests isolate themselves through namespaces: each request carries {@link #NAMESPACE_HEADER}
+ * and sees only the movies, stubs and recorded requests of its namespace, which lets test classes
+ * share the server and run in parallel. Verify through {@link #verify(String, CountMatchingStrategy,
+ * RequestPatternBuilder)} rather than the server, whose journal holds every namespace's requests.
+ * <pre>
+ * MovieServiceStub stub = MovieServiceStub.instance();
+ * String namespace = stub.newNamespace();
+ * MoviesRestClient client = stub.moviesRestClient(namespace);
+ * </pre>
+ */
+public final class MovieServiceStub {
+    public static final String NAMESPACE_HEADER = "X-Movie-Stub-Namespace";
+    public static final String DEFAULT_NAMESPACE = "default";
+
+    private static final int STORE_PRIORITY = 10;
+    private static final int CONTAINER_THREADS = 64;
+
+    private static volatile MovieServiceStub instance;
+
+    private final WireMockServer server;
+    private final ConcurrentMap<String, InMemoryMovieStore> stores = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, List<StubMapping>> namespaceStubs = new ConcurrentHashMap<>();
+
+    private MovieServiceStub() {
+        server = new WireMockServer(wireMockConfig()
+            .dynamicPort()
+            .containerThreads(CONTAINER_THREADS)
+            .extensions(new MovieStoreTransformer(this::store)));
+        server.start();
+        server.stubFor(any(urlPathMatching("/movieservice/.*"))
+            .atPriority(STORE_PRIORITY)
+            .willReturn(aResponse().withTransformers(MovieStoreTransformer.NAME)));
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "movie-service-stub-shutdown"));
+    }
+
+    public static MovieServiceStub instance() {
+        MovieServiceStub stub = instance;
+        if (stub == null) {
+            synchronized (MovieServiceStub.class) {
+                stub = instance;
+                if (stub == null) {
+                    stub = new MovieServiceStub();
+                    instance = stub;
+                }
+            }
+        }
+        return stub;
+    }
+
+    public WireMockServer server() {
+        return server;
+    }
+
+    public int port() {
+        return server.port();
+    }
+
+    public String baseUrl() {
+        return String.format("http://localhost:%s", server.port());
+    }
+
+    public String newNamespace() {
+        return UUID.randomUUID().toString();
+    }
+
+    public WebClient webClient(String namespace) {
+        return WebClient.builder()
+            .baseUrl(baseUrl())
+            .defaultHeader(NAMESPACE_HEADER, namespace)
+            .build();
+    }
+
+    public MoviesRestClient moviesRestClient(String namespace) {
+        return new MoviesRestClient(webClient(namespace));
+    }
+
+    /**
+     * Adds movies to the namespace, assigning their ids.
+     */
+    public List<Movie> seed(String namespace, Movie... movies) {
+        InMemoryMovieStore store = store(namespace);
+        return Stream.of(movies).map(store::add).collect(Collectors.toList());
+    }
+
+    public List<Movie> movies(String namespace) {
+        return store(namespace).findAll();
+    }
+
+    /**
+     * Registers a stub seen only by requests of the namespace, taking precedence over the
+     * in-memory store, e.g. to inject faults or delays for a single test.
+     */
+    public StubMapping stubFor(String namespace, MappingBuilder mappingBuilder) {
+        StubMapping stubMapping = server.stubFor(mappingBuilder.withHeader(NAMESPACE_HEADER, equalTo(namespace)));
+        namespaceStubs.computeIfAbsent(namespace, key -> new CopyOnWriteArrayList<>()).add(stubMapping);
+        return stubMapping;
+    }
+
+    /**
+     * Verifies the requests made from the namespace only.
+     */
+    public void verify(String namespace, CountMatchingStrategy countMatching, RequestPatternBuilder requestPatternBuilder) {
+        server.verify(countMatching, requestPatternBuilder.withHeader(NAMESPACE_HEADER, equalTo(namespace)));
+    }
+
+    /**
+     * Drops the movies, stubs and recorded requests of the namespace.
+     */
+    public void reset(String namespace) {
+        stores.remove(namespace);
+        List<StubMapping> stubMappings = namespaceStubs.remove(namespace);
+        if (stubMappings != null) {
+            stubMappings.forEach(server::removeStub);
+        }
+        server.removeServeEventsMatching(anyRequestedFor(anyUrl())
+            .withHeader(NAMESPACE_HEADER, equalTo(namespace))
+            .build());
+    }
+
+    private InMemoryMovieStore store(String namespace) {
+        return stores.computeIfAbsent(namespace, key -> new InMemoryMovieStore());
+    }
+}
@@ -0,0 +1,172 @@
+package com.learnwiremock.stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.QueryParameter;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.RequestMethod;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.learnwiremock.dto.Movie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static com.learnwiremock.constants.StringConstants.ADD_MOVIE_V1;
+import static com.learnwiremock.constants.StringConstants.GET_ALL_MOVIES_V1;
+import static com.learnwiremock.constants.StringConstants.GET_MOVIE_BY_NAME;
+import static com.learnwiremock.constants.StringConstants.GET_MOVIE_BY_YEAR;
+
+/**
+ * Answers every movie service endpoint from the {@link InMemoryMovieStore} of the request's
+ * namespace, with the same status codes and error bodies as the real service.
+ */
+class MovieStoreTransformer extends ResponseDefinitionTransformer {
+    static final String NAME = "movie-store";
+
+    private static final String MOVIE_BY_ID_PREFIX = ADD_MOVIE_V1 + "/";
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final Function<String, InMemoryMovieStore> storeForNamespace;
+
+    MovieStoreTransformer(Function<String, InMemoryMovieStore> storeForNamespace) {
+        this.storeForNamespace = storeForNamespace;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean applyGlobally() {
+        return false;
+    }
+
+    @Override
+    public ResponseDefinition transform(Request request, ResponseDefinition responseDefinition, FileSource files, Parameters parameters) {
+        InMemoryMovieStore store = storeForNamespace.apply(namespaceOf(request));
+        String path = URI.create(request.getUrl()).getPath();
+        RequestMethod method = request.getMethod();
+        try {
+            if (path.equals(GET_ALL_MOVIES_V1) && method.equals(RequestMethod.GET)) {
+                return json(HttpStatus.OK, store.findAll());
+            }
+            if (path.equals(GET_MOVIE_BY_NAME) && (method.equals(RequestMethod.GET) || method.equals(RequestMethod.DELETE))) {
+                return byName(request, path, store);
+            }
+            if (path.equals(GET_MOVIE_BY_YEAR) && method.equals(RequestMethod.GET)) {
+                return byYear(request, path, store);
+            }
+            if (path.equals(ADD_MOVIE_V1) && method.equals(RequestMethod.POST)) {
+                Movie movie = objectMapper.readValue(request.getBody(), Movie.class);
+                if (movie.getName() == null) {
+                    return error(HttpStatus.BAD_REQUEST, "Please pass all the input fields : [name]", path);
+                }
+                return json(HttpStatus.OK, store.add(movie));
+            }
+            if (path.startsWith(MOVIE_BY_ID_PREFIX)) {
+                return byId(request, path, store);
+            }
+        } catch (IOException ex) {
+            return error(HttpStatus.BAD_REQUEST, ex.getMessage(), path);
+        }
+        return error(HttpStatus.NOT_FOUND, "No handler for " + method + " " + path, path);
+    }
+
+    private ResponseDefinition byId(Request request, String path, InMemoryMovieStore store) throws IOException {
+        String id = path.substring(MOVIE_BY_ID_PREFIX.length());
+        String notFound = "No Movie Available with the given Id - " + id;
+        long movieId;
+        try {
+            movieId = Long.parseLong(id);
+        } catch (NumberFormatException ex) {
+            return error(HttpStatus.NOT_FOUND, notFound, path);
+        }
+        RequestMethod method = request.getMethod();
+        Optional<Movie> movie;
+        if (method.equals(RequestMethod.GET)) {
+            movie = store.findById(movieId);
+        } else if (method.equals(RequestMethod.PUT)) {
+            movie = store.update(movieId, objectMapper.readValue(request.getBody(), Movie.class));
+        } else if (method.equals(RequestMethod.DELETE)) {
+            return store.deleteById(movieId) ? deleted() : error(HttpStatus.NOT_FOUND, notFound, path);
+        } else {
+            return error(HttpStatus.METHOD_NOT_ALLOWED, method + " not supported", path);
+        }
+        return movie.isPresent() ? json(HttpStatus.OK, movie.get()) : error(HttpStatus.NOT_FOUND, notFound, path);
+    }
+
+    private ResponseDefinition byName(Request request, String path, InMemoryMovieStore store) throws IOException {
+        QueryParameter name = request.queryParameter("movie_name");
+        String notFound = "No Movie Available with the given name - " + (name.isPresent() ? name.firstValue() : "");
+        if (!name.isPresent()) {
+            return error(HttpStatus.NOT_FOUND, notFound, path);
+        }
+        if (request.getMethod().equals(RequestMethod.DELETE)) {
+            return store.deleteByName(name.firstValue()) ? deleted() : error(HttpStatus.NOT_FOUND, notFound, path);
+        }
+        List<Movie> movies = store.findByName(name.firstValue());
+        return movies.isEmpty() ? error(HttpStatus.NOT_FOUND, notFound, path) : json(HttpStatus.OK, movies);
+    }
+
+    private ResponseDefinition byYear(Request request, String path, InMemoryMovieStore store) throws IOException {
+        QueryParameter year = request.queryParameter("year");
+        String notFound = "No Movie Available with the given year - " + (year.isPresent() ? year.firstValue() : "");
+        List<Movie> movies;
+        try {
+            movies = year.isPresent() ? store.findByYear(Integer.parseInt(year.firstValue())) : List.of();
+        } catch (NumberFormatException ex) {
+            movies = List.of();
+        }
+        return movies.isEmpty() ? error(HttpStatus.NOT_FOUND, notFound, path) : json(HttpStatus.OK, movies);
+    }
+
+    private static String namespaceOf(Request request) {
+        HttpHeader namespace = request.header(MovieServiceStub.NAMESPACE_HEADER);
+        return namespace.isPresent() ? namespace.firstValue() : MovieServiceStub.DEFAULT_NAMESPACE;
+    }
+
+    private ResponseDefinition json(HttpStatus status, Object body) throws IOException {
+        return new ResponseDefinitionBuilder()
+            .withStatus(status.value())
+            .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .withBody(objectMapper.writeValueAsBytes(body))
+            .build();
+    }
+
+    private static ResponseDefinition deleted() {
+        return new ResponseDefinitionBuilder()
+            .withStatus(HttpStatus.OK.value())
+            .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE)
+            .withBody("Movie Deleted Successfully")
+            .build();
+    }
+
+    private ResponseDefinition error(HttpStatus status, String message, String path) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", Instant.now().toString());
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", message);
+        body.put("path", path);
+        try {
+            return json(status, body);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}